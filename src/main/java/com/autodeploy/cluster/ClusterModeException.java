@@ -0,0 +1,11 @@
+package com.autodeploy.cluster;
+
+/**
+ * 当前节点的运行模式不支持该操作（如 coordinator 节点收到同步执行请求）
+ */
+public class ClusterModeException extends IllegalStateException {
+
+    public ClusterModeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.autodeploy.cluster;
+
+import com.autodeploy.model.Task;
+
+import java.util.Map;
+
+/**
+ * 队列中的一次任务执行
+ */
+public record Job(
+        String id,
+        String taskName,
+        Task task,
+        Map<String, String> variables,
+        Status status,
+        String workerId,
+        Long leaseUntil,
+        int attempts,
+        String message,
+        Long duration,
+        long createdAt,
+        long updatedAt) {
+
+    /**
+     * 执行状态
+     */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,74 @@
+package com.autodeploy.cluster;
+
+import com.autodeploy.config.AutoDeployConfig;
+import com.autodeploy.model.Task;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务协调器 - API 节点只负责入队和查询，执行交给 Worker 进程
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "autodeploy.cluster", name = "mode", havingValue = "coordinator")
+public class JobCoordinator {
+
+    private final JobStore jobStore;
+    private final AutoDeployConfig.ClusterConfig config;
+    private ScheduledExecutorService reaper;
+
+    public JobCoordinator(JobStore jobStore, AutoDeployConfig config) {
+        this.jobStore = jobStore;
+        this.config = config.getCluster();
+    }
+
+    @PostConstruct
+    public void init() {
+        // 定期回收过期租约，保证没有空闲 Worker 时查询到的状态也是准确的
+        reaper = Executors.newSingleThreadScheduledExecutor();
+        reaper.scheduleWithFixedDelay(() -> {
+            try {
+                jobStore.reclaimExpired();
+            } catch (Exception e) {
+                log.error("回收过期任务失败", e);
+            }
+        }, config.getHeartbeatMs(), config.getHeartbeatMs(), TimeUnit.MILLISECONDS);
+        log.info("协调器已启动");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        reaper.shutdownNow();
+    }
+
+    /**
+     * 提交任务到队列
+     */
+    public Job submit(Task task, Map<String, String> variables) {
+        Job job = jobStore.enqueue(task, variables);
+        log.info("任务已入队: {} ({})", task.getName(), job.id());
+        return job;
+    }
+
+    /**
+     * 查询任务执行状态
+     */
+    public Job getJob(String id) {
+        return jobStore.find(id);
+    }
+
+    /**
+     * 取消任务，返回 false 表示任务不存在或已结束
+     */
+    public boolean cancel(String id) {
+        return jobStore.cancel(id);
+    }
+}
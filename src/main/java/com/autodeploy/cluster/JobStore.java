@@ -0,0 +1,349 @@
+package com.autodeploy.cluster;
+
+import com.autodeploy.config.AutoDeployConfig;
+import com.autodeploy.core.AutomationExecutor;
+import com.autodeploy.model.Task;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.sqlite.SQLiteConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * 任务队列存储 - 基于 SQLite 的持久化队列
+ *
+ * 同一主机上的多个 JVM 共享同一个数据库文件，领取任务使用 BEGIN IMMEDIATE 事务，
+ * 由 SQLite 文件锁保证同一任务只会被一个 Worker 领取。
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${autodeploy.cluster.mode:standalone}' != 'standalone'")
+public class JobStore {
+
+    private static final TypeReference<Map<String, String>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+
+    private final AutoDeployConfig config;
+    private final ObjectMapper objectMapper;
+    private String url;
+    private Properties properties;
+
+    public JobStore(AutoDeployConfig config, ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() throws IOException, SQLException {
+        Path dbPath = Paths.get(config.getCluster().getDbPath()).toAbsolutePath();
+        Files.createDirectories(dbPath.getParent());
+        url = "jdbc:sqlite:" + dbPath;
+
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        // WAL 模式下读写互不阻塞，多进程并发时更友好
+        sqliteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        sqliteConfig.setBusyTimeout(10000);
+        // 事务开始即获取写锁，避免多个 Worker 读到同一条 QUEUED 记录
+        sqliteConfig.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        properties = sqliteConfig.toProperties();
+
+        try (Connection conn = connect(); Statement st = conn.createStatement()) {
+            st.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS jobs (
+                        id TEXT PRIMARY KEY,
+                        task_name TEXT,
+                        task_json TEXT NOT NULL,
+                        variables_json TEXT,
+                        status TEXT NOT NULL,
+                        worker_id TEXT,
+                        lease_until INTEGER,
+                        attempts INTEGER NOT NULL DEFAULT 0,
+                        message TEXT,
+                        duration INTEGER,
+                        created_at INTEGER NOT NULL,
+                        updated_at INTEGER NOT NULL
+                    )""");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_jobs_status ON jobs (status, created_at)");
+        }
+        log.info("任务队列已就绪: {}", dbPath);
+    }
+
+    /**
+     * 新任务入队
+     */
+    public Job enqueue(Task task, Map<String, String> variables) {
+        String id = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement("""
+                     INSERT INTO jobs (id, task_name, task_json, variables_json, status, created_at, updated_at)
+                     VALUES (?, ?, ?, ?, ?, ?, ?)""")) {
+            ps.setString(1, id);
+            ps.setString(2, task.getName());
+            ps.setString(3, toJson(task));
+            ps.setString(4, variables != null ? toJson(variables) : null);
+            ps.setString(5, Job.Status.QUEUED.name());
+            ps.setLong(6, now);
+            ps.setLong(7, now);
+            ps.executeUpdate();
+            return find(conn, id);
+        } catch (SQLException e) {
+            throw new IllegalStateException("任务入队失败: " + task.getName(), e);
+        }
+    }
+
+    /**
+     * 根据 ID 查询任务
+     */
+    public Job find(String id) {
+        try (Connection conn = connect()) {
+            return find(conn, id);
+        } catch (SQLException e) {
+            throw new IllegalStateException("查询任务失败: " + id, e);
+        }
+    }
+
+    /**
+     * 任务是否已被取消（只查询状态，供 Worker 执行期间频繁检查）
+     */
+    public boolean isCancelled(String id) {
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement("SELECT status FROM jobs WHERE id = ?")) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && Job.Status.CANCELLED.name().equals(rs.getString("status"));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("查询任务失败: " + id, e);
+        }
+    }
+
+    /**
+     * 领取最早入队的任务，没有可领取的任务时返回 null
+     * 领取前会先回收租约已过期的任务
+     */
+    public Job lease(String workerId) {
+        AutoDeployConfig.ClusterConfig cluster = config.getCluster();
+        long now = System.currentTimeMillis();
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            try {
+                reclaimExpired(conn, now, cluster.getMaxAttempts());
+
+                String id = null;
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "SELECT id FROM jobs WHERE status = ? ORDER BY created_at LIMIT 1")) {
+                    ps.setString(1, Job.Status.QUEUED.name());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            id = rs.getString(1);
+                        }
+                    }
+                }
+                if (id == null) {
+                    conn.commit();
+                    return null;
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement("""
+                        UPDATE jobs SET status = ?, worker_id = ?, lease_until = ?,
+                            attempts = attempts + 1, updated_at = ?
+                        WHERE id = ?""")) {
+                    ps.setString(1, Job.Status.RUNNING.name());
+                    ps.setString(2, workerId);
+                    ps.setLong(3, now + cluster.getLeaseMs());
+                    ps.setLong(4, now);
+                    ps.setString(5, id);
+                    ps.executeUpdate();
+                }
+                Job job = find(conn, id);
+                conn.commit();
+                return job;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("领取任务失败: " + workerId, e);
+        }
+    }
+
+    /**
+     * 续约，返回 false 表示租约已丢失（已过期并被回收）
+     */
+    public boolean heartbeat(String id, String workerId) {
+        long now = System.currentTimeMillis();
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement("""
+                     UPDATE jobs SET lease_until = ?, updated_at = ?
+                     WHERE id = ? AND worker_id = ? AND status = ?""")) {
+            ps.setLong(1, now + config.getCluster().getLeaseMs());
+            ps.setLong(2, now);
+            ps.setString(3, id);
+            ps.setString(4, workerId);
+            ps.setString(5, Job.Status.RUNNING.name());
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("续约失败: " + id, e);
+        }
+    }
+
+    /**
+     * 记录执行结果，返回 false 表示租约已丢失，结果被丢弃
+     */
+    public boolean complete(String id, String workerId, AutomationExecutor.TaskResult result) {
+        long now = System.currentTimeMillis();
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement("""
+                     UPDATE jobs SET status = ?, message = ?, duration = ?, lease_until = NULL, updated_at = ?
+                     WHERE id = ? AND worker_id = ? AND status = ?""")) {
+            ps.setString(1, (result.success() ? Job.Status.SUCCEEDED : Job.Status.FAILED).name());
+            ps.setString(2, result.message());
+            ps.setLong(3, result.duration());
+            ps.setLong(4, now);
+            ps.setString(5, id);
+            ps.setString(6, workerId);
+            ps.setString(7, Job.Status.RUNNING.name());
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("记录执行结果失败: " + id, e);
+        }
+    }
+
+    /**
+     * 取消任务，返回 false 表示任务不存在或已结束
+     * 执行中的任务由 Worker 在一个轮询间隔（poll-ms）内发现并中止
+     */
+    public boolean cancel(String id) {
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement("""
+                     UPDATE jobs SET status = ?, message = ?, lease_until = NULL, updated_at = ?
+                     WHERE id = ? AND status IN (?, ?)""")) {
+            ps.setString(1, Job.Status.CANCELLED.name());
+            ps.setString(2, "任务已取消");
+            ps.setLong(3, System.currentTimeMillis());
+            ps.setString(4, id);
+            ps.setString(5, Job.Status.QUEUED.name());
+            ps.setString(6, Job.Status.RUNNING.name());
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("取消任务失败: " + id, e);
+        }
+    }
+
+    /**
+     * 回收租约已过期的任务，返回重新入队的数量
+     */
+    public int reclaimExpired() {
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            try {
+                int requeued = reclaimExpired(conn, System.currentTimeMillis(), config.getCluster().getMaxAttempts());
+                conn.commit();
+                return requeued;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("回收过期任务失败", e);
+        }
+    }
+
+    private int reclaimExpired(Connection conn, long now, int maxAttempts) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+                UPDATE jobs SET status = ?, message = ?, worker_id = NULL, lease_until = NULL, updated_at = ?
+                WHERE status = ? AND lease_until < ? AND attempts >= ?""")) {
+            ps.setString(1, Job.Status.FAILED.name());
+            ps.setString(2, "租约多次过期，Worker 可能已崩溃");
+            ps.setLong(3, now);
+            ps.setString(4, Job.Status.RUNNING.name());
+            ps.setLong(5, now);
+            ps.setInt(6, maxAttempts);
+            int failed = ps.executeUpdate();
+            if (failed > 0) {
+                log.warn("{} 个任务达到最大领取次数，标记为失败", failed);
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("""
+                UPDATE jobs SET status = ?, worker_id = NULL, lease_until = NULL, updated_at = ?
+                WHERE status = ? AND lease_until < ?""")) {
+            ps.setString(1, Job.Status.QUEUED.name());
+            ps.setLong(2, now);
+            ps.setString(3, Job.Status.RUNNING.name());
+            ps.setLong(4, now);
+            int requeued = ps.executeUpdate();
+            if (requeued > 0) {
+                log.warn("{} 个任务租约过期，已重新入队", requeued);
+            }
+            return requeued;
+        }
+    }
+
+    private Job find(Connection conn, String id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM jobs WHERE id = ?")) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? toJob(rs) : null;
+            }
+        }
+    }
+
+    private Job toJob(ResultSet rs) throws SQLException {
+        String variablesJson = rs.getString("variables_json");
+        return new Job(
+                rs.getString("id"),
+                rs.getString("task_name"),
+                fromJson(rs.getString("task_json"), Task.class),
+                variablesJson != null ? fromJson(variablesJson, VARIABLES_TYPE) : null,
+                Job.Status.valueOf(rs.getString("status")),
+                rs.getString("worker_id"),
+                rs.getObject("lease_until") != null ? rs.getLong("lease_until") : null,
+                rs.getInt("attempts"),
+                rs.getString("message"),
+                rs.getObject("duration") != null ? rs.getLong("duration") : null,
+                rs.getLong("created_at"),
+                rs.getLong("updated_at"));
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, properties);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("序列化失败", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("反序列化失败", e);
+        }
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("反序列化失败", e);
+        }
+    }
+}
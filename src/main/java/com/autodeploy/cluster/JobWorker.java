@@ -0,0 +1,144 @@
+package com.autodeploy.cluster;
+
+import com.autodeploy.config.AutoDeployConfig;
+import com.autodeploy.core.AutomationExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 任务 Worker - 从队列领取任务并在本进程内执行
+ *
+ * 执行期间定期续约；进程崩溃后租约过期，任务会被其他 Worker 重新领取。
+ * 取消请求按轮询间隔单独检查，不必等到下次续约。
+ * 进程内的 Playwright 连接不是线程安全的，每个 Worker 进程同一时间只执行一个任务，通过增加进程扩展。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "autodeploy.cluster", name = "mode", havingValue = "worker")
+public class JobWorker {
+
+    private final JobStore jobStore;
+    private final AutomationExecutor automationExecutor;
+    private final AutoDeployConfig.ClusterConfig config;
+    private String workerId;
+    private ExecutorService poller;
+    private ScheduledExecutorService heartbeats;
+    private volatile boolean running;
+
+    public JobWorker(JobStore jobStore, AutomationExecutor automationExecutor, AutoDeployConfig config) {
+        this.jobStore = jobStore;
+        this.automationExecutor = automationExecutor;
+        this.config = config.getCluster();
+    }
+
+    @PostConstruct
+    public void init() {
+        workerId = config.getWorkerId() != null && !config.getWorkerId().isBlank()
+                ? config.getWorkerId()
+                : "worker-" + ProcessHandle.current().pid();
+        running = true;
+        heartbeats = Executors.newSingleThreadScheduledExecutor();
+        poller = Executors.newSingleThreadExecutor();
+        poller.submit(this::pollLoop);
+        log.info("Worker 已启动: {}", workerId);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        log.info("停止 Worker: {}", workerId);
+        running = false;
+        poller.shutdown();
+        // 未完成的任务不再续约，租约过期后由其他 Worker 接手
+        if (!poller.awaitTermination(config.getLeaseMs(), TimeUnit.MILLISECONDS)) {
+            poller.shutdownNow();
+        }
+        heartbeats.shutdownNow();
+        log.info("Worker 已停止: {}", workerId);
+    }
+
+    private void pollLoop() {
+        // 只以 running 标志决定是否退出，偶发的中断（如取消竞争）不能让 Worker 槽位永久失效
+        while (running) {
+            try {
+                Job job = jobStore.lease(workerId);
+                if (job == null) {
+                    pause();
+                    continue;
+                }
+                runJob(job);
+            } catch (Exception e) {
+                log.error("领取任务失败", e);
+                pause();
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(config.getPollMs());
+        } catch (InterruptedException e) {
+            // 中断标记已被清除，关闭时由 running 标志结束循环
+        }
+    }
+
+    private void runJob(Job job) {
+        log.info("领取任务: {} ({}), 第 {} 次", job.taskName(), job.id(), job.attempts());
+        // 执行尚未开始时 cancel 返回 false，下次检查时重试
+        AtomicBoolean aborted = new AtomicBoolean();
+
+        // 续约间隔较长，取消请求按轮询间隔单独检查，尽快中止执行
+        ScheduledFuture<?> cancelWatch = heartbeats.scheduleWithFixedDelay(() -> {
+            try {
+                if (!aborted.get() && jobStore.isCancelled(job.id()) && automationExecutor.cancel(job.id())) {
+                    aborted.set(true);
+                    log.info("任务已取消，中止执行: {}", job.id());
+                }
+            } catch (Exception e) {
+                log.error("检查取消状态失败: {}", job.id(), e);
+            }
+        }, config.getPollMs(), config.getPollMs(), TimeUnit.MILLISECONDS);
+
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> {
+            try {
+                if (!jobStore.heartbeat(job.id(), workerId) && !aborted.get()) {
+                    // 任务已被取消，或租约过期后已重新入队（可能已被其他 Worker 领取），
+                    // 两种情况都必须中止本地执行，避免同一任务并发执行两次
+                    Job latest = jobStore.find(job.id());
+                    if (latest != null && latest.status() == Job.Status.CANCELLED) {
+                        log.info("任务已取消，中止执行: {}", job.id());
+                    } else {
+                        log.warn("任务租约已丢失，中止执行: {}", job.id());
+                    }
+                    if (automationExecutor.cancel(job.id())) {
+                        aborted.set(true);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("续约失败: {}", job.id(), e);
+            }
+        }, config.getHeartbeatMs(), config.getHeartbeatMs(), TimeUnit.MILLISECONDS);
+
+        AutomationExecutor.TaskResult result;
+        try {
+            // 使用任务 ID 作为执行 ID，取消时可以直接定位
+            result = automationExecutor.execute(job.id(), job.task(), job.variables(), null);
+        } finally {
+            heartbeat.cancel(false);
+            cancelWatch.cancel(false);
+        }
+
+        if (!jobStore.complete(job.id(), workerId, result)) {
+            log.warn("任务已取消或租约已丢失，丢弃执行结果: {}", job.id());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 /**
  * Playwright 配置类
  */
@@ -15,6 +17,9 @@ public class AutoDeployConfig {
     private BrowserConfig browser = new BrowserConfig();
     private AuthConfig auth = new AuthConfig();
     private TasksConfig tasks = new TasksConfig();
+    private ClusterConfig cluster = new ClusterConfig();
+    private SelectorsConfig selectors = new SelectorsConfig();
+    private AssetCacheConfig assetCache = new AssetCacheConfig();
 
     @Data
     public static class BrowserConfig {
@@ -32,6 +37,54 @@ public class AutoDeployConfig {
          * 慢动作模式延迟（毫秒）
          */
         private int slowMo = 100;
+
+        /**
+         * 浏览器来源: launch（进程内启动）, connect（连接 Playwright 浏览器服务）, cdp（通过 CDP 连接 Chromium）
+         */
+        private String mode = "launch";
+
+        /**
+         * connect / cdp 模式下的连接地址，如 ws://127.0.0.1:3000/ 或 http://127.0.0.1:9222
+         */
+        private String endpoint;
+
+        /**
+         * 连接失败时的重试次数
+         */
+        private int reconnectAttempts = 5;
+
+        /**
+         * 重试间隔（毫秒）
+         */
+        private long reconnectDelayMs = 2000;
+
+        /**
+         * 浏览器回收策略（仅 launch 模式）
+         */
+        private RecycleConfig recycle = new RecycleConfig();
+    }
+
+    @Data
+    public static class RecycleConfig {
+        /**
+         * 创建多少个上下文后重启浏览器，0 表示不限制
+         */
+        private int maxContexts = 200;
+
+        /**
+         * 浏览器最长存活时间（毫秒），0 表示不限制
+         */
+        private long maxAgeMs = 6 * 60 * 60 * 1000L;
+
+        /**
+         * 浏览器进程树内存上限（MB），0 表示不限制，仅 Linux 下可用
+         */
+        private long maxMemoryMb = 2048;
+
+        /**
+         * 内存检查间隔（毫秒），0 表示不检查内存
+         */
+        private long checkIntervalMs = 60000;
     }
 
     @Data
@@ -49,4 +102,78 @@ public class AutoDeployConfig {
          */
         private String directory = "./src/main/resources/tasks";
     }
+
+    @Data
+    public static class SelectorsConfig {
+        /**
+         * 候选选择器命中统计的存储路径
+         */
+        private String statsPath = "./data/selector-stats.json";
+
+        /**
+         * 统计写盘间隔（毫秒），命中只更新内存，由后台线程按该间隔合并写盘
+         */
+        private long flushIntervalMs = 5000;
+    }
+
+    @Data
+    public static class AssetCacheConfig {
+        /**
+         * 是否启用共享静态资源缓存
+         */
+        private boolean enabled = false;
+
+        /**
+         * 缓存根目录，每个进程占用其下的一个槽位子目录（slot-N）
+         */
+        private String directory = "./data/asset-cache";
+
+        /**
+         * 每个进程的缓存容量上限（MB），超出后按最近最少使用淘汰
+         */
+        private long maxSizeMb = 512;
+
+        /**
+         * 参与缓存的资源类型
+         */
+        private List<String> resourceTypes = List.of("script", "stylesheet", "font", "image");
+    }
+
+    @Data
+    public static class ClusterConfig {
+        /**
+         * 运行模式: standalone（单机直接执行）, coordinator（只入队）, worker（领取并执行）
+         */
+        private String mode = "standalone";
+
+        /**
+         * 任务队列数据库路径（SQLite，同一主机上的多个 JVM 共享）
+         */
+        private String dbPath = "./data/jobs.db";
+
+        /**
+         * Worker 标识，为空时使用 worker-进程号
+         */
+        private String workerId;
+
+        /**
+         * 租约时长（毫秒），超过该时间没有心跳的任务会被重新入队
+         */
+        private long leaseMs = 60000;
+
+        /**
+         * 心跳间隔（毫秒），应明显小于租约时长
+         */
+        private long heartbeatMs = 15000;
+
+        /**
+         * 队列为空时的轮询间隔（毫秒），也是 Worker 执行期间检查取消请求的间隔
+         */
+        private long pollMs = 1000;
+
+        /**
+         * 最大领取次数，租约过期且达到该次数的任务直接标记为失败
+         */
+        private int maxAttempts = 3;
+    }
 }
@@ -1,15 +1,19 @@
 package com.autodeploy.controller;
 
+import com.autodeploy.cluster.ClusterModeException;
+import com.autodeploy.cluster.Job;
 import com.autodeploy.core.AutomationExecutor;
 import com.autodeploy.model.Task;
 import com.autodeploy.service.DeployService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * 部署控制器 - REST API
@@ -52,16 +56,21 @@ public class DeployController {
      * 执行指定任务
      * POST /api/deploy/execute/{taskName}
      * 可选请求参数: variables (JSON对象，用于覆盖任务默认变量)
+     * 可选查询参数: executionId (需要取消时必须预先指定), deadline (整体时限，毫秒)
      */
     @PostMapping("/execute/{taskName}")
     public ResponseEntity<Map<String, Object>> executeTask(
             @PathVariable String taskName,
-            @RequestBody(required = false) Map<String, String> variables) {
+            @RequestBody(required = false) Map<String, String> variables,
+            @RequestParam(required = false) String executionId,
+            @RequestParam(required = false) Long deadline) {
         log.info("收到执行任务请求: {}, 变量: {}", taskName, variables);
 
-        AutomationExecutor.TaskResult result = deployService.executeTask(taskName, variables);
+        String id = executionId != null ? executionId : UUID.randomUUID().toString();
+        AutomationExecutor.TaskResult result = deployService.executeTask(taskName, variables, id, deadline);
 
         Map<String, Object> response = new HashMap<>();
+        response.put("executionId", id);
         response.put("success", result.success());
         response.put("taskName", result.taskName());
         response.put("message", result.message());
@@ -77,14 +86,20 @@ public class DeployController {
     /**
      * 直接执行任务配置（不保存）
      * POST /api/deploy/execute
+     * 可选查询参数: executionId (需要取消时必须预先指定), deadline (整体时限，毫秒)
      */
     @PostMapping("/execute")
-    public ResponseEntity<Map<String, Object>> executeTaskDirect(@RequestBody Task task) {
+    public ResponseEntity<Map<String, Object>> executeTaskDirect(
+            @RequestBody Task task,
+            @RequestParam(required = false) String executionId,
+            @RequestParam(required = false) Long deadline) {
         log.info("收到直接执行任务请求: {}", task.getName());
 
-        AutomationExecutor.TaskResult result = deployService.executeTask(task);
+        String id = executionId != null ? executionId : UUID.randomUUID().toString();
+        AutomationExecutor.TaskResult result = deployService.executeTask(task, null, id, deadline);
 
         Map<String, Object> response = new HashMap<>();
+        response.put("executionId", id);
         response.put("success", result.success());
         response.put("taskName", result.taskName());
         response.put("message", result.message());
@@ -97,6 +112,86 @@ public class DeployController {
         }
     }
 
+    /**
+     * 静态资源缓存统计（命中率、节省流量）
+     * GET /api/deploy/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(deployService.getAssetCacheStats());
+    }
+
+    /**
+     * 提交指定任务到队列，由 Worker 异步执行（coordinator 模式）
+     * POST /api/deploy/executions/{taskName}
+     * 可选请求参数: variables (JSON对象，用于覆盖任务默认变量)
+     * 可选查询参数: deadline (整体时限，毫秒，从开始执行时计算)
+     */
+    @PostMapping("/executions/{taskName}")
+    public ResponseEntity<Map<String, Object>> submitTask(
+            @PathVariable String taskName,
+            @RequestBody(required = false) Map<String, String> variables,
+            @RequestParam(required = false) Long deadline) {
+        log.info("收到提交任务请求: {}, 变量: {}", taskName, variables);
+
+        Job job = deployService.submitTask(taskName, variables, deadline);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toResponse(job));
+    }
+
+    /**
+     * 查询执行状态（coordinator 模式）
+     * GET /api/deploy/executions/{executionId}
+     */
+    @GetMapping("/executions/{executionId}")
+    public ResponseEntity<Map<String, Object>> getExecution(@PathVariable String executionId) {
+        Job job = deployService.getExecution(executionId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(toResponse(job));
+    }
+
+    /**
+     * 取消执行（同步执行传入的 executionId，或队列中的任务）
+     * 本进程内的执行立即中断；队列中正在执行的任务由 Worker 在一个轮询间隔（poll-ms）内中止
+     * DELETE /api/deploy/executions/{executionId}
+     */
+    @DeleteMapping("/executions/{executionId}")
+    public ResponseEntity<Map<String, Object>> cancelExecution(@PathVariable String executionId) {
+        log.info("收到取消执行请求: {}", executionId);
+
+        if (!deployService.cancelExecution(executionId)) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("executionId", executionId);
+        response.put("cancelled", true);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * 当前运行模式不支持的操作返回 409，其他异常仍按服务端错误处理
+     */
+    @ExceptionHandler(ClusterModeException.class)
+    public ResponseEntity<Map<String, Object>> handleClusterMode(ClusterModeException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    /**
+     * 浏览器运行统计（回收次数、内存占用）
+     * GET /api/deploy/browser/stats
+     */
+    @GetMapping("/browser/stats")
+    public ResponseEntity<Map<String, Object>> browserStats() {
+        return ResponseEntity.ok(deployService.getBrowserStats());
+    }
+
     /**
      * 健康检查
      * GET /api/deploy/health
@@ -108,4 +203,18 @@ public class DeployController {
         status.put("service", "auto-deployment");
         return ResponseEntity.ok(status);
     }
+
+    private Map<String, Object> toResponse(Job job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("executionId", job.id());
+        response.put("taskName", job.taskName());
+        response.put("status", job.status());
+        response.put("workerId", job.workerId());
+        response.put("attempts", job.attempts());
+        response.put("message", job.message());
+        response.put("duration", job.duration());
+        response.put("createdAt", job.createdAt());
+        response.put("updatedAt", job.updatedAt());
+        return response;
+    }
 }
@@ -0,0 +1,444 @@
+package com.autodeploy.core;
+
+import com.autodeploy.config.AutoDeployConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.APIResponse;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Route;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 共享静态资源缓存 - 在所有浏览器上下文之间共享的磁盘缓存
+ *
+ * 通过上下文级路由拦截静态资源请求：新鲜的缓存直接返回，过期的缓存带校验头
+ * （If-None-Match / If-Modified-Since）回源，304 时继续使用缓存；未命中时回源并写入缓存。
+ * 缓存总大小超过上限时按最近最少使用淘汰。
+ *
+ * 索引和容量统计只在本进程内维护，同一主机上的多个进程（如多个 Worker）各自占用缓存目录下的一个
+ * 槽位子目录（slot-0、slot-1 ...），互不淘汰对方的文件；进程重启后重新占用空闲槽位，缓存仍可复用。
+ */
+@Slf4j
+@Component
+public class AssetCache {
+
+    private static final Pattern MAX_AGE_PATTERN = Pattern.compile("(?:s-maxage|max-age)=(\\d+)");
+
+    // 回放时由 Playwright 重新计算，缓存的是解码后的内容
+    private static final Set<String> SKIPPED_HEADERS = Set.of("content-encoding", "content-length", "transfer-encoding");
+
+    private final AutoDeployConfig.AssetCacheConfig config;
+    private final ObjectMapper objectMapper;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private Path directory;
+    private FileChannel slotChannel;
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    public AssetCache(AutoDeployConfig config, ObjectMapper objectMapper) {
+        this.config = config.getAssetCache();
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+        directory = claimSlot(Paths.get(config.getDirectory()).toAbsolutePath());
+
+        // 按最近访问时间恢复 LRU 顺序
+        try (Stream<Path> paths = Files.list(directory)) {
+            List<Path> files = paths.toList();
+            cleanStaleTempFiles(files);
+            List<Path> metaFiles = files.stream()
+                    .filter(p -> p.getFileName().toString().endsWith(".json"))
+                    .sorted(Comparator.comparing(this::lastAccess))
+                    .toList();
+            for (Path metaFile : metaFiles) {
+                String key = metaFile.getFileName().toString().replace(".json", "");
+                try {
+                    Entry entry = objectMapper.readValue(metaFile.toFile(), Entry.class);
+                    if (Files.exists(bodyPath(key))) {
+                        index.put(key, entry);
+                        totalBytes += entry.size();
+                    } else {
+                        Files.deleteIfExists(metaFile);
+                    }
+                } catch (IOException e) {
+                    log.warn("缓存元数据损坏，已丢弃: {}", metaFile);
+                    delete(key);
+                }
+            }
+        }
+        log.info("静态资源缓存已启用: {} ({} 项, {}MB)", directory, index.size(), totalBytes / 1024 / 1024);
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        if (slotChannel != null) {
+            // 关闭通道同时释放槽位锁
+            slotChannel.close();
+        }
+    }
+
+    /**
+     * 占用第一个空闲的槽位子目录，进程存活期间一直持有其文件锁
+     */
+    private Path claimSlot(Path root) throws IOException {
+        for (int slot = 0; ; slot++) {
+            Path slotDirectory = root.resolve("slot-" + slot);
+            Files.createDirectories(slotDirectory);
+            FileChannel channel = FileChannel.open(slotDirectory.resolve(".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // 本进程内的其他实例已占用
+                lock = null;
+            }
+            if (lock != null) {
+                slotChannel = channel;
+                return slotDirectory;
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * 为上下文挂载缓存路由（未启用时不做任何处理）
+     */
+    public void attach(BrowserContext context) {
+        if (config.isEnabled()) {
+            context.route("**/*", this::handle);
+        }
+    }
+
+    /**
+     * 缓存统计（命中率、节省流量等）
+     */
+    public synchronized Map<String, Object> getStats() {
+        long served = hits.get() + revalidated.get();
+        long total = served + misses.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", config.isEnabled());
+        stats.put("entries", index.size());
+        stats.put("totalBytes", totalBytes);
+        stats.put("hits", hits.get());
+        stats.put("revalidated", revalidated.get());
+        stats.put("misses", misses.get());
+        stats.put("stores", stores.get());
+        stats.put("evictions", evictions.get());
+        stats.put("bytesSaved", bytesSaved.get());
+        stats.put("hitRate", total > 0 ? (double) served / total : 0.0);
+        return stats;
+    }
+
+    private void handle(Route route) {
+        Request request = route.request();
+        if (!"GET".equals(request.method()) || !config.getResourceTypes().contains(request.resourceType())) {
+            route.resume();
+            return;
+        }
+
+        String url = request.url();
+        String key = key(url);
+        APIResponse response;
+        try {
+            Entry entry = lookup(key);
+            byte[] body = entry != null ? readBody(key) : null;
+
+            if (body != null && System.currentTimeMillis() < entry.expiresAt()) {
+                hits.incrementAndGet();
+                bytesSaved.addAndGet(body.length);
+                fulfill(route, entry, body);
+                return;
+            }
+
+            if (body != null && (entry.etag() != null || entry.lastModified() != null)) {
+                Map<String, String> headers = new HashMap<>(request.headers());
+                if (entry.etag() != null) {
+                    headers.put("if-none-match", entry.etag());
+                }
+                if (entry.lastModified() != null) {
+                    headers.put("if-modified-since", entry.lastModified());
+                }
+                response = route.fetch(new Route.FetchOptions().setHeaders(headers));
+                if (response.status() == 304) {
+                    revalidated.incrementAndGet();
+                    bytesSaved.addAndGet(body.length);
+                    Entry refreshed = entry.withExpiresAt(expiresAt(response.headers(), System.currentTimeMillis()));
+                    writeMeta(key, refreshed);
+                    synchronized (this) {
+                        index.replace(key, refreshed);
+                    }
+                    fulfill(route, refreshed, body);
+                    return;
+                }
+            } else {
+                response = route.fetch();
+            }
+        } catch (Exception e) {
+            log.debug("缓存处理失败，直接请求: {}", url, e);
+            route.resume();
+            return;
+        }
+
+        misses.incrementAndGet();
+        store(key, url, response);
+        route.fulfill(new Route.FulfillOptions().setResponse(response));
+    }
+
+    private void fulfill(Route route, Entry entry, byte[] body) {
+        route.fulfill(new Route.FulfillOptions()
+                .setStatus(entry.status())
+                .setHeaders(entry.headers())
+                .setBodyBytes(body));
+    }
+
+    private void store(String key, String url, APIResponse response) {
+        Map<String, String> headers = response.headers();
+        if (response.status() != 200 || !isCacheable(headers)) {
+            return;
+        }
+
+        try {
+            byte[] body = response.body();
+            // 单个资源不超过缓存容量的 1/8，避免大文件挤掉所有常用资源
+            if (body.length > maxBytes() / 8) {
+                return;
+            }
+
+            Map<String, String> storedHeaders = new HashMap<>();
+            headers.forEach((name, value) -> {
+                if (!SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                    storedHeaders.put(name, value);
+                }
+            });
+            put(key, new Entry(url, response.status(), storedHeaders, body.length,
+                    expiresAt(headers, System.currentTimeMillis()), headers.get("etag"), headers.get("last-modified")),
+                    body);
+        } catch (Exception e) {
+            log.warn("写入缓存失败: {}", url, e);
+        }
+    }
+
+    /**
+     * 写入缓存项并按容量淘汰
+     * 文件先写临时文件再原子替换，共享缓存目录的其他进程不会读到写了一半的内容
+     */
+    void put(String key, Entry entry, byte[] body) throws IOException {
+        writeAtomically(bodyPath(key), body);
+        writeMeta(key, entry);
+        stores.incrementAndGet();
+
+        synchronized (this) {
+            Entry previous = index.put(key, entry);
+            totalBytes += entry.size() - (previous != null ? previous.size() : 0);
+            evict();
+        }
+    }
+
+    /**
+     * 是否可以放入共享缓存
+     * 带 Set-Cookie 的响应与具体用户相关，回放到其他上下文会串改登录状态，不缓存
+     */
+    static boolean isCacheable(Map<String, String> headers) {
+        String cacheControl = headers.getOrDefault("cache-control", "").toLowerCase();
+        if (cacheControl.contains("no-store") || cacheControl.contains("private")) {
+            return false;
+        }
+        if (headers.containsKey("set-cookie") || "*".equals(headers.get("vary"))) {
+            return false;
+        }
+        return MAX_AGE_PATTERN.matcher(cacheControl).find()
+                || headers.containsKey("expires")
+                || headers.containsKey("etag")
+                || headers.containsKey("last-modified");
+    }
+
+    /**
+     * 根据 Cache-Control / Expires 计算过期时间，无法确定时立即过期（下次使用前校验）
+     */
+    static long expiresAt(Map<String, String> headers, long now) {
+        String cacheControl = headers.getOrDefault("cache-control", "").toLowerCase();
+        if (cacheControl.contains("no-cache")) {
+            return now;
+        }
+        Matcher matcher = MAX_AGE_PATTERN.matcher(cacheControl);
+        if (matcher.find()) {
+            return now + Long.parseLong(matcher.group(1)) * 1000;
+        }
+        String expires = headers.get("expires");
+        if (expires != null) {
+            try {
+                return ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                return now;
+            }
+        }
+        return now;
+    }
+
+    synchronized Entry lookup(String key) {
+        Entry entry = index.get(key);
+        if (entry != null) {
+            try {
+                Files.setLastModifiedTime(metaPath(key), FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                // 只影响重启后的淘汰顺序
+            }
+        }
+        return entry;
+    }
+
+    private byte[] readBody(String key) {
+        try {
+            return Files.readAllBytes(bodyPath(key));
+        } catch (IOException e) {
+            synchronized (this) {
+                Entry removed = index.remove(key);
+                if (removed != null) {
+                    totalBytes -= removed.size();
+                }
+            }
+            delete(key);
+            return null;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes() && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue().size();
+            delete(eldest.getKey());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void writeMeta(String key, Entry entry) throws IOException {
+        writeAtomically(metaPath(key), objectMapper.writeValueAsBytes(entry));
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path tmp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, content);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 清理进程崩溃时遗留的临时文件（只清理一小时前的，避免误删其他进程正在写的文件）
+     */
+    private void cleanStaleTempFiles(List<Path> files) {
+        long staleBefore = System.currentTimeMillis() - 60 * 60 * 1000L;
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(".tmp") && lastAccess(file).toMillis() < staleBefore) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("删除临时文件失败: {}", file, e);
+                }
+            }
+        }
+    }
+
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(bodyPath(key));
+            Files.deleteIfExists(metaPath(key));
+        } catch (IOException e) {
+            log.warn("删除缓存文件失败: {}", key, e);
+        }
+    }
+
+    private FileTime lastAccess(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private long maxBytes() {
+        return config.getMaxSizeMb() * 1024 * 1024;
+    }
+
+    private Path bodyPath(String key) {
+        return directory.resolve(key + ".body");
+    }
+
+    private Path metaPath(String key) {
+        return directory.resolve(key + ".json");
+    }
+
+    private static String key(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存项元数据
+     */
+    public record Entry(
+            String url,
+            int status,
+            Map<String, String> headers,
+            long size,
+            long expiresAt,
+            String etag,
+            String lastModified) {
+
+        Entry withExpiresAt(long expiresAt) {
+            return new Entry(url, status, headers, size, expiresAt, etag, lastModified);
+        }
+    }
+}
@@ -3,13 +3,18 @@ package com.autodeploy.core;
 import com.autodeploy.model.Action;
 import com.autodeploy.model.Task;
 import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
 import com.microsoft.playwright.options.WaitForSelectorState;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,12 +26,15 @@ import java.util.regex.Pattern;
 public class AutomationExecutor {
 
     private final BrowserManager browserManager;
+    private final SelectorStats selectorStats;
+    private final Map<String, RunningExecution> running = new ConcurrentHashMap<>();
 
     // 变量匹配模式: ${variableName}
     private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
 
-    public AutomationExecutor(BrowserManager browserManager) {
+    public AutomationExecutor(BrowserManager browserManager, SelectorStats selectorStats) {
         this.browserManager = browserManager;
+        this.selectorStats = selectorStats;
     }
 
     /**
@@ -40,18 +48,39 @@ public class AutomationExecutor {
      * 执行任务（传入运行时变量，会覆盖默认值）
      */
     public TaskResult execute(Task task, Map<String, String> runtimeVariables) {
-        log.info("开始执行任务: {}", task.getName());
+        return execute(UUID.randomUUID().toString(), task, runtimeVariables, null);
+    }
+
+    /**
+     * 执行任务（指定执行 ID 和整体时限）
+     * 执行 ID 用于 {@link #cancel(String)}；deadline 为整体时限（毫秒），与任务自身的 deadline 取较小值
+     */
+    public TaskResult execute(String executionId, Task task, Map<String, String> runtimeVariables, Long deadline) {
+        log.info("开始执行任务: {} ({})", task.getName(), executionId);
         long startTime = System.currentTimeMillis();
 
+        Long effectiveDeadline = task.getDeadline();
+        if (deadline != null) {
+            effectiveDeadline = effectiveDeadline != null ? Math.min(effectiveDeadline, deadline) : deadline;
+        }
+        long deadlineAt = effectiveDeadline != null ? startTime + effectiveDeadline : Long.MAX_VALUE;
+
         // 合并变量：默认值 + 运行时变量
         Map<String, String> variables = new HashMap<>();
         if (task.getVariables() != null) {
             variables.putAll(task.getVariables());
         }
-        variables.putAll(runtimeVariables);
+        if (runtimeVariables != null) {
+            variables.putAll(runtimeVariables);
+        }
 
         log.debug("任务变量: {}", variables);
 
+        RunningExecution execution = new RunningExecution(Thread.currentThread());
+        if (running.putIfAbsent(executionId, execution) != null) {
+            return TaskResult.failure(task.getName(), "执行 ID 已存在: " + executionId);
+        }
+
         BrowserContext context = null;
         Page page = null;
 
@@ -62,7 +91,7 @@ public class AutomationExecutor {
             // 导航到目标 URL（支持变量替换）
             String url = replaceVariables(task.getUrl(), variables);
             log.info("导航到: {}", url);
-            page.navigate(url);
+            page.navigate(url, new Page.NavigateOptions().setTimeout(remaining(execution, deadlineAt, 30000L)));
 
             // 执行每个步骤
             int stepIndex = 0;
@@ -73,7 +102,7 @@ public class AutomationExecutor {
                         action.getAction(),
                         action.getDescription() != null ? action.getDescription() : action.getSelector());
 
-                executeAction(page, action, variables);
+                executeAction(page, action, variables, task.getName(), execution, deadlineAt);
             }
 
             // 保存登录状态
@@ -87,26 +116,77 @@ public class AutomationExecutor {
             return TaskResult.success(task.getName(), duration);
 
         } catch (Exception e) {
+            if (execution.cancelled) {
+                log.warn("任务已取消: {} ({})", task.getName(), executionId);
+                return TaskResult.failure(task.getName(), "任务已取消");
+            }
             log.error("任务执行失败: {}", task.getName(), e);
             return TaskResult.failure(task.getName(), e.getMessage());
         } finally {
-            if (page != null) {
+            // 与 cancel 互斥：标记结束后不会再有中断落到本线程上
+            synchronized (execution) {
+                execution.finished = true;
+                running.remove(executionId);
+                // 响应取消时的中断标记只针对本次执行，不影响线程后续使用
+                Thread.interrupted();
+            }
+            if (page != null && !page.isClosed()) {
                 page.close();
             }
             if (context != null) {
-                context.close();
+                browserManager.closeContext(context);
             }
         }
     }
 
+    /**
+     * 取消正在执行的任务：标记取消并中断执行线程
+     * Playwright 对象不是线程安全的，页面和上下文只能由执行线程在 finally 中关闭；
+     * 中断会让执行线程上阻塞中的 Playwright 调用立即抛出异常
+     * 返回 false 表示本进程内没有该执行
+     */
+    public boolean cancel(String executionId) {
+        RunningExecution execution = running.get(executionId);
+        if (execution == null) {
+            return false;
+        }
+        synchronized (execution) {
+            // 执行已结束时线程可能已被复用，不能再中断
+            if (execution.finished) {
+                return false;
+            }
+            execution.cancelled = true;
+            execution.thread.interrupt();
+        }
+        log.info("取消任务: {}", executionId);
+        return true;
+    }
+
+    /**
+     * 计算本步骤可用的超时时间：步骤超时与剩余整体时限取较小值
+     */
+    private long remaining(RunningExecution execution, long deadlineAt, long timeout) {
+        if (execution.cancelled) {
+            throw new IllegalStateException("任务已取消");
+        }
+        long remaining = deadlineAt - System.currentTimeMillis();
+        if (remaining <= 0) {
+            throw new IllegalStateException("任务超过整体时限");
+        }
+        return Math.min(timeout, remaining);
+    }
+
     /**
      * 执行单个操作（支持变量替换）
      */
-    private void executeAction(Page page, Action action, Map<String, String> variables) {
+    private void executeAction(Page page, Action action, Map<String, String> variables, String taskName,
+                               RunningExecution execution, long deadlineAt) {
         String actionType = action.getAction().toLowerCase();
-        String selector = replaceVariables(action.getSelector(), variables);
+        String selector = resolveSelector(page, action, variables, taskName,
+                remaining(execution, deadlineAt, action.getTimeout()));
+        // 等待候选选择器已消耗部分时间，操作本身只能使用剩余的整体时限
+        long timeout = remaining(execution, deadlineAt, action.getTimeout());
         String value = replaceVariables(action.getValue(), variables);
-        long timeout = action.getTimeout();
 
         switch (actionType) {
             case "click" -> {
@@ -129,7 +209,7 @@ public class AutomationExecutor {
                         .setTimeout(timeout));
             }
             case "navigate" -> {
-                page.navigate(value);
+                page.navigate(value, new Page.NavigateOptions().setTimeout(timeout));
             }
             case "screenshot" -> {
                 String path = value != null ? value : "screenshot.png";
@@ -141,16 +221,17 @@ public class AutomationExecutor {
                     Thread.sleep(timeout);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
+                    throw new IllegalStateException("等待被中断", e);
                 }
             }
             case "select" -> {
-                page.selectOption(selector, value);
+                page.selectOption(selector, value, new Page.SelectOptionOptions().setTimeout(timeout));
             }
             case "check" -> {
-                page.check(selector);
+                page.check(selector, new Page.CheckOptions().setTimeout(timeout));
             }
             case "uncheck" -> {
-                page.uncheck(selector);
+                page.uncheck(selector, new Page.UncheckOptions().setTimeout(timeout));
             }
             default -> {
                 log.warn("未知的操作类型: {}", actionType);
@@ -158,6 +239,70 @@ public class AutomationExecutor {
         }
     }
 
+    /**
+     * 确定本次使用的选择器
+     * 有多个候选时按学习到的顺序先探测一次，都不可见再同时等待所有候选，取最先出现的一个
+     */
+    private String resolveSelector(Page page, Action action, Map<String, String> variables, String taskName,
+                                   long timeout) {
+        List<String> candidates = new ArrayList<>();
+        if (action.getSelector() != null) {
+            candidates.add(action.getSelector());
+        }
+        if (action.getSelectors() != null) {
+            action.getSelectors().stream()
+                    .filter(c -> !candidates.contains(c))
+                    .forEach(candidates::add);
+        }
+        if (candidates.size() <= 1) {
+            return candidates.isEmpty() ? null : replaceVariables(candidates.get(0), variables);
+        }
+
+        // 统计按原始候选记录，不受变量取值影响
+        String stepKey = SelectorStats.stepKey(taskName, candidates);
+        List<String> ordered = selectorStats.order(stepKey, candidates);
+        Locator any = null;
+        for (String candidate : ordered) {
+            Locator locator = page.locator(replaceVariables(candidate, variables));
+            any = any == null ? locator : any.or(locator);
+        }
+
+        // wait_hidden 需要所有候选都消失，直接等待组合定位器
+        if ("wait_hidden".equalsIgnoreCase(action.getAction())) {
+            any.first().waitFor(new Locator.WaitForOptions()
+                    .setState(WaitForSelectorState.HIDDEN)
+                    .setTimeout(timeout));
+            return replaceVariables(ordered.get(0), variables);
+        }
+
+        String winner = findVisible(page, ordered, variables);
+        if (winner == null) {
+            any.first().waitFor(new Locator.WaitForOptions()
+                    .setState(WaitForSelectorState.VISIBLE)
+                    .setTimeout(timeout));
+            winner = findVisible(page, ordered, variables);
+        }
+        if (winner == null) {
+            // 命中的元素在检查前又消失了，交给后续操作按首选候选处理
+            return replaceVariables(ordered.get(0), variables);
+        }
+
+        if (!winner.equals(ordered.get(0))) {
+            log.info("步骤 {} 使用候选选择器: {}", stepKey, winner);
+        }
+        selectorStats.recordSuccess(stepKey, winner);
+        return replaceVariables(winner, variables);
+    }
+
+    private String findVisible(Page page, List<String> candidates, Map<String, String> variables) {
+        for (String candidate : candidates) {
+            if (page.locator(replaceVariables(candidate, variables)).first().isVisible()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
     /**
      * 替换字符串中的变量
      * ${variableName} -> variableValue
@@ -180,6 +325,20 @@ public class AutomationExecutor {
         return result.toString();
     }
 
+    /**
+     * 正在执行的任务（用于取消）
+     */
+    private static class RunningExecution {
+        final Thread thread;
+        volatile boolean cancelled;
+        // 受本对象锁保护，cancel 与执行结束互斥
+        boolean finished;
+
+        RunningExecution(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
     /**
      * 任务执行结果
      */
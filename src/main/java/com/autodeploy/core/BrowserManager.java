@@ -7,56 +7,102 @@ import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 浏览器管理器 - 管理 Playwright 浏览器生命周期
+ *
+ * 浏览器达到回收条件（上下文数量、存活时间、内存）后不再接收新上下文，
+ * 新任务使用重新启动的浏览器，旧浏览器等在途任务全部结束后再关闭。
  */
 @Slf4j
 @Component
 public class BrowserManager {
 
     private final AutoDeployConfig config;
+    private final AssetCache assetCache;
     private Playwright playwright;
-    private Browser browser;
+    private BrowserInstance current;
+    private final Set<BrowserInstance> retiring = new HashSet<>();
+    // 只有持有 openLock 的线程会启动或连接浏览器；加锁顺序固定为 openLock -> this
+    private final Object openLock = new Object();
+    private final Map<BrowserContext, BrowserInstance> contexts = new ConcurrentHashMap<>();
+    private final Map<String, Long> recycles = new ConcurrentHashMap<>();
+    private ScheduledExecutorService watchdog;
+    private volatile long browserMemoryBytes;
+    private volatile boolean memoryExceeded;
+    private int generation;
 
-    public BrowserManager(AutoDeployConfig config) {
+    public BrowserManager(AutoDeployConfig config, AssetCache assetCache) {
         this.config = config;
+        this.assetCache = assetCache;
     }
 
     @PostConstruct
     public void init() {
+        // coordinator 节点只负责入队，浏览器由 Worker 进程启动
+        if ("coordinator".equalsIgnoreCase(config.getCluster().getMode())) {
+            log.info("coordinator 模式，不启动 Playwright");
+            return;
+        }
+
         log.info("初始化 Playwright...");
         playwright = Playwright.create();
         log.info("Playwright 初始化完成");
+
+        // 检查间隔为 0 表示不检查内存
+        long interval = config.getBrowser().getRecycle().getCheckIntervalMs();
+        if (interval > 0) {
+            watchdog = Executors.newSingleThreadScheduledExecutor();
+            watchdog.scheduleWithFixedDelay(this::checkMemory, interval, interval, TimeUnit.MILLISECONDS);
+        }
     }
 
     @PreDestroy
     public void destroy() {
+        if (playwright == null) {
+            return;
+        }
         log.info("关闭 Playwright...");
-        if (browser != null) {
-            browser.close();
+        if (watchdog != null) {
+            watchdog.shutdownNow();
         }
-        if (playwright != null) {
-            playwright.close();
+        List<BrowserInstance> instances;
+        synchronized (this) {
+            instances = new ArrayList<>(retiring);
+            if (current != null) {
+                instances.add(current);
+            }
         }
+        instances.forEach(instance -> instance.browser.close());
+        playwright.close();
         log.info("Playwright 已关闭");
     }
 
     /**
-     * 获取或创建浏览器实例
+     * 获取或创建浏览器实例（连接已断开时自动重连）
      */
     public Browser getBrowser() {
-        if (browser == null || !browser.isConnected()) {
-            browser = launchBrowser();
-        }
-        return browser;
+        return acquireInstance().browser;
     }
 
     /**
      * 创建新的浏览器上下文（带登录状态）
+     * 使用完毕后需调用 {@link #closeContext(BrowserContext)} 释放
+     * 本对象的锁只用于选择浏览器和计数，newContext 在锁外进行，不阻塞其他任务的释放和统计
      */
     public BrowserContext createContext() {
         Browser.NewContextOptions options = new Browser.NewContextOptions();
@@ -71,7 +117,45 @@ public class BrowserManager {
             options.setStorageStatePath(storagePath);
         }
 
-        return getBrowser().newContext(options);
+        BrowserInstance instance;
+        while (true) {
+            instance = acquireInstance();
+            synchronized (this) {
+                // 获取之后可能已被其他线程回收或发现断开，重新获取
+                if (instance == current) {
+                    // 先占用计数，创建期间浏览器被回收时也会等本任务结束后再关闭
+                    instance.contextsCreated++;
+                    instance.active++;
+                    break;
+                }
+            }
+        }
+
+        BrowserContext context;
+        try {
+            context = instance.browser.newContext(options);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                instance.contextsCreated--;
+                instance.active--;
+            }
+            closeDrained();
+            throw e;
+        }
+        contexts.put(context, instance);
+        assetCache.attach(context);
+        return context;
+    }
+
+    /**
+     * 关闭上下文，所属浏览器已进入回收状态且没有在途任务时一并关闭浏览器
+     */
+    public void closeContext(BrowserContext context) {
+        try {
+            context.close();
+        } finally {
+            release(context);
+        }
     }
 
     /**
@@ -90,17 +174,239 @@ public class BrowserManager {
     }
 
     /**
-     * 创建新页面
+     * 创建新页面（使用现有上下文）
      */
-    public Page createPage() {
-        return createContext().newPage();
+    public Page createPage(BrowserContext context) {
+        return context.newPage();
     }
 
     /**
-     * 创建新页面（使用现有上下文）
+     * 浏览器运行统计（回收次数、内存占用等）
      */
-    public Page createPage(BrowserContext context) {
-        return context.newPage();
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("generation", generation);
+        stats.put("ageMs", current != null ? System.currentTimeMillis() - current.launchedAt : 0);
+        stats.put("contextsCreated", current != null ? current.contextsCreated : 0);
+        stats.put("activeContexts", contexts.size());
+        stats.put("retiringBrowsers", retiring.size());
+        stats.put("recycles", new HashMap<>(recycles));
+        stats.put("totalRecycles", recycles.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("browserMemoryBytes", browserMemoryBytes);
+        return stats;
+    }
+
+    /**
+     * 获取当前浏览器，需要时启动或重连
+     * 启动和连接重试可能耗时较长，只在 openLock 下进行，不占用本对象的锁，
+     * 避免阻塞 closeContext、getStats 等操作
+     */
+    private BrowserInstance acquireInstance() {
+        BrowserInstance instance;
+        synchronized (this) {
+            instance = checkCurrent();
+        }
+        closeDrained();
+        if (instance != null) {
+            return instance;
+        }
+        synchronized (openLock) {
+            synchronized (this) {
+                instance = checkCurrent();
+            }
+            closeDrained();
+            if (instance != null) {
+                return instance;
+            }
+            Browser browser = openBrowser();
+            synchronized (this) {
+                current = new BrowserInstance(browser);
+                generation++;
+                return current;
+            }
+        }
+    }
+
+    /**
+     * 检查当前浏览器是否需要回收或已断开，返回仍可用的浏览器，没有时返回 null
+     */
+    private BrowserInstance checkCurrent() {
+        if (current != null) {
+            String reason = recycleReason(current);
+            if (reason != null) {
+                retire(current, reason);
+            } else if (!current.browser.isConnected()) {
+                log.warn("浏览器连接已断开，重新启动");
+                current = null;
+            }
+        }
+        return current;
+    }
+
+    private String recycleReason(BrowserInstance instance) {
+        // 连接外部浏览器时关闭只是断开连接，回收没有意义
+        if (!isLaunchMode()) {
+            return null;
+        }
+        AutoDeployConfig.RecycleConfig recycle = config.getBrowser().getRecycle();
+        if (recycle.getMaxContexts() > 0 && instance.contextsCreated >= recycle.getMaxContexts()) {
+            return "contexts";
+        }
+        if (recycle.getMaxAgeMs() > 0
+                && System.currentTimeMillis() - instance.launchedAt >= recycle.getMaxAgeMs()) {
+            return "age";
+        }
+        if (memoryExceeded) {
+            memoryExceeded = false;
+            return "memory";
+        }
+        return null;
+    }
+
+    private void retire(BrowserInstance instance, String reason) {
+        log.info("回收浏览器 (原因: {}, 已创建上下文: {}, 在途任务: {})",
+                reason, instance.contextsCreated, instance.active);
+        recycles.merge(reason, 1L, Long::sum);
+        // 超限读数属于被回收的浏览器，不应再作用于新浏览器
+        memoryExceeded = false;
+        current = null;
+        // 在途任务为 0 时由调用方在锁外通过 closeDrained 关闭
+        retiring.add(instance);
+    }
+
+    private void release(BrowserContext context) {
+        synchronized (this) {
+            BrowserInstance instance = contexts.remove(context);
+            if (instance == null) {
+                return;
+            }
+            instance.active--;
+        }
+        closeDrained();
+    }
+
+    /**
+     * 关闭已回收且没有在途任务的浏览器
+     * 关闭浏览器可能耗时数秒，必须在本对象的锁外调用
+     */
+    private void closeDrained() {
+        List<BrowserInstance> drained;
+        synchronized (this) {
+            drained = retiring.stream().filter(instance -> instance.active == 0).toList();
+            drained.forEach(retiring::remove);
+        }
+        drained.forEach(this::closeBrowser);
+    }
+
+    private void closeBrowser(BrowserInstance instance) {
+        try {
+            instance.browser.close();
+            log.info("旧浏览器已关闭");
+        } catch (Exception e) {
+            log.warn("关闭旧浏览器失败", e);
+        }
+    }
+
+    /**
+     * 统计浏览器进程树的常驻内存，超过阈值时标记回收（下次创建上下文时生效）
+     */
+    private void checkMemory() {
+        try {
+            browserMemoryBytes = ProcessHandle.current().descendants()
+                    // Playwright 驱动本身（node）不随浏览器重启，不计入
+                    .filter(p -> p.info().command()
+                            .map(c -> !c.endsWith("node") && !c.endsWith("node.exe"))
+                            .orElse(true))
+                    .mapToLong(p -> readRss(p.pid()))
+                    .sum();
+
+            // 旧浏览器排空期间读数包含新旧两个进程树，据此判断会让新浏览器被连续回收
+            boolean draining;
+            synchronized (this) {
+                draining = !retiring.isEmpty();
+            }
+            long maxMemoryMb = config.getBrowser().getRecycle().getMaxMemoryMb();
+            if (!draining && maxMemoryMb > 0 && browserMemoryBytes > maxMemoryMb * 1024 * 1024) {
+                log.warn("浏览器内存 {}MB 超过阈值 {}MB，将回收浏览器",
+                        browserMemoryBytes / 1024 / 1024, maxMemoryMb);
+                memoryExceeded = true;
+            }
+        } catch (Exception e) {
+            log.error("检查浏览器内存失败", e);
+        }
+    }
+
+    private long readRss(long pid) {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D+", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // 进程已退出或非 Linux 系统
+        }
+        return 0;
+    }
+
+    private boolean isLaunchMode() {
+        return "launch".equalsIgnoreCase(config.getBrowser().getMode());
+    }
+
+    /**
+     * 启动或连接浏览器，连接外部浏览器失败时按配置重试
+     */
+    private Browser openBrowser() {
+        if (playwright == null) {
+            throw new IllegalStateException("当前节点未启动 Playwright: " + config.getCluster().getMode());
+        }
+        if (isLaunchMode()) {
+            return launchBrowser();
+        }
+
+        AutoDeployConfig.BrowserConfig browserConfig = config.getBrowser();
+        int attempts = Math.max(1, browserConfig.getReconnectAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return connectBrowser();
+            } catch (PlaywrightException e) {
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                log.warn("连接浏览器失败 ({}/{}): {}", attempt, attempts, e.getMessage());
+                try {
+                    Thread.sleep(browserConfig.getReconnectDelayMs());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Browser connectBrowser() {
+        AutoDeployConfig.BrowserConfig browserConfig = config.getBrowser();
+        String endpoint = browserConfig.getEndpoint();
+        if (endpoint == null || endpoint.isBlank()) {
+            throw new IllegalStateException("未配置浏览器连接地址: autodeploy.browser.endpoint");
+        }
+
+        if ("cdp".equalsIgnoreCase(browserConfig.getMode())) {
+            log.info("通过 CDP 连接浏览器: {}", endpoint);
+            return playwright.chromium().connectOverCDP(endpoint,
+                    new BrowserType.ConnectOverCDPOptions().setSlowMo(browserConfig.getSlowMo()));
+        }
+
+        String browserType = browserConfig.getType().toLowerCase();
+        log.info("连接浏览器服务: {} ({})", endpoint, browserType);
+        BrowserType.ConnectOptions options = new BrowserType.ConnectOptions()
+                .setSlowMo(browserConfig.getSlowMo());
+        return switch (browserType) {
+            case "firefox" -> playwright.firefox().connect(endpoint, options);
+            case "webkit" -> playwright.webkit().connect(endpoint, options);
+            default -> playwright.chromium().connect(endpoint, options);
+        };
     }
 
     private Browser launchBrowser() {
@@ -108,7 +414,7 @@ public class BrowserManager {
                 .setHeadless(config.getBrowser().isHeadless())
                 .setSlowMo(config.getBrowser().getSlowMo())
                 // 启动时最大化窗口
-                .setArgs(java.util.List.of("--start-maximized"));
+                .setArgs(List.of("--start-maximized"));
 
         String browserType = config.getBrowser().getType().toLowerCase();
         log.info("启动浏览器: {} (headless: {}, 最大化窗口)", browserType, config.getBrowser().isHeadless());
@@ -119,4 +425,18 @@ public class BrowserManager {
             default -> playwright.chromium().launch(options);
         };
     }
+
+    /**
+     * 浏览器实例及其使用情况
+     */
+    private static class BrowserInstance {
+        final Browser browser;
+        final long launchedAt = System.currentTimeMillis();
+        int contextsCreated;
+        int active;
+
+        BrowserInstance(Browser browser) {
+            this.browser = browser;
+        }
+    }
 }
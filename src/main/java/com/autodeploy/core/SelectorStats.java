@@ -0,0 +1,184 @@
+package com.autodeploy.core;
+
+import com.autodeploy.config.AutoDeployConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 候选选择器命中统计 - 按任务步骤记录各候选的命中情况，并持久化到磁盘（多进程共享时合并写入）
+ *
+ * 命中只更新内存，由后台线程定期合并写盘，执行步骤时不会等待文件锁和磁盘读写。
+ */
+@Slf4j
+@Component
+public class SelectorStats {
+
+    private static final TypeReference<Map<String, Map<String, Stat>>> STATS_TYPE = new TypeReference<>() {
+    };
+
+    // FileLock 只在进程之间互斥，同一进程内的写盘（后台线程、关闭时的 flush）先在这里串行
+    private static final Object FLUSH_LOCK = new Object();
+
+    private final AutoDeployConfig config;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Map<String, Stat>> stats = new HashMap<>();
+    private boolean dirty;
+    private ScheduledExecutorService writer;
+
+    public SelectorStats(AutoDeployConfig config, ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        Path statsPath = Paths.get(config.getSelectors().getStatsPath());
+        if (Files.exists(statsPath)) {
+            merge(readFromDisk(statsPath));
+            log.info("加载选择器统计: {} ({} 个步骤)", statsPath, stats.size());
+        }
+
+        long interval = config.getSelectors().getFlushIntervalMs();
+        writer = Executors.newSingleThreadScheduledExecutor();
+        writer.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (writer != null) {
+            writer.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * 步骤的统计键：任务名 + 候选选择器集合
+     * 不使用步骤序号，YAML 中插入或删除步骤后统计仍然有效
+     */
+    public static String stepKey(String taskName, List<String> candidates) {
+        return taskName + " | " + String.join(" | ", new TreeSet<>(candidates));
+    }
+
+    /**
+     * 按最近命中时间、命中次数排序候选，未命中过的候选保持原有顺序
+     */
+    public synchronized List<String> order(String stepKey, List<String> candidates) {
+        Map<String, Stat> stepStats = stats.getOrDefault(stepKey, Map.of());
+        List<String> ordered = new ArrayList<>(candidates);
+        ordered.sort(Comparator
+                .comparingLong((String c) -> stepStats.containsKey(c) ? stepStats.get(c).lastSuccessAt() : 0)
+                .thenComparingLong(c -> stepStats.containsKey(c) ? stepStats.get(c).wins() : 0)
+                .reversed());
+        return ordered;
+    }
+
+    /**
+     * 记录命中的候选（只更新内存，由后台线程写盘）
+     */
+    public void recordSuccess(String stepKey, String candidate) {
+        record(stepKey, candidate, System.currentTimeMillis());
+    }
+
+    synchronized void record(String stepKey, String candidate, long now) {
+        Map<String, Stat> stepStats = stats.computeIfAbsent(stepKey, k -> new HashMap<>());
+        Stat previous = stepStats.get(candidate);
+        stepStats.put(candidate, new Stat(previous != null ? previous.wins() + 1 : 1, now));
+        dirty = true;
+    }
+
+    /**
+     * 把内存中的统计写盘：先合并磁盘上的统计，多个进程共享同一文件时不会互相覆盖
+     * 读取-合并-写入在文件锁内完成，文件锁和磁盘读写都不占用本对象的锁
+     */
+    void flush() {
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+        }
+        Path statsPath = Paths.get(config.getSelectors().getStatsPath()).toAbsolutePath();
+        synchronized (FLUSH_LOCK) {
+            writeToDisk(statsPath);
+        }
+    }
+
+    private void writeToDisk(Path statsPath) {
+        try {
+            Files.createDirectories(statsPath.getParent());
+            Path lockPath = statsPath.resolveSibling(statsPath.getFileName() + ".lock");
+            try (FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Map<String, Map<String, Stat>> snapshot = merge(readFromDisk(statsPath));
+                Path tmp = statsPath.resolveSibling(statsPath.getFileName() + ".tmp");
+                objectMapper.writeValue(tmp.toFile(), snapshot);
+                Files.move(tmp, statsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            log.error("保存选择器统计失败: {}", statsPath, e);
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    private Map<String, Map<String, Stat>> readFromDisk(Path statsPath) {
+        if (!Files.exists(statsPath)) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(statsPath.toFile(), STATS_TYPE);
+        } catch (IOException e) {
+            log.warn("读取选择器统计失败，将覆盖: {}", statsPath, e);
+            return Map.of();
+        }
+    }
+
+    /**
+     * 合并磁盘上的统计，返回合并后的副本用于写盘
+     */
+    private synchronized Map<String, Map<String, Stat>> merge(Map<String, Map<String, Stat>> onDisk) {
+        onDisk.forEach((stepKey, diskStats) -> {
+            Map<String, Stat> stepStats = stats.computeIfAbsent(stepKey, k -> new HashMap<>());
+            diskStats.forEach((candidate, stat) -> stepStats.merge(candidate, stat, Stat::merge));
+        });
+        Map<String, Map<String, Stat>> snapshot = new HashMap<>();
+        stats.forEach((stepKey, stepStats) -> snapshot.put(stepKey, new HashMap<>(stepStats)));
+        return snapshot;
+    }
+
+    /**
+     * 单个候选的命中统计
+     */
+    public record Stat(long wins, long lastSuccessAt) {
+
+        /**
+         * 合并两份统计：取较大的命中次数和较晚的命中时间
+         */
+        static Stat merge(Stat a, Stat b) {
+            return new Stat(Math.max(a.wins(), b.wins()), Math.max(a.lastSuccessAt(), b.lastSuccessAt()));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.autodeploy.model;
 
 import lombok.Data;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,6 +20,12 @@ public class Action {
      */
     private String selector;
     
+    /**
+     * 候选选择器（页面结构变化时的备选），与 selector 一起同时等待，
+     * 按最近命中情况排序，先出现的候选即为本次使用的选择器
+     */
+    private List<String> selectors;
+    
     /**
      * 输入值（用于 fill 操作）
      */
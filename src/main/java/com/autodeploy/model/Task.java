@@ -30,6 +30,11 @@ public class Task {
      */
     private boolean requireAuth = true;
 
+    /**
+     * 整体时限（毫秒），从开始执行时计算，限制所有剩余步骤的超时时间；为空表示不限制
+     */
+    private Long deadline;
+
     /**
      * 变量定义（可在执行时覆盖）
      * 格式: variableName: defaultValue
@@ -1,9 +1,15 @@
 package com.autodeploy.service;
 
+import com.autodeploy.cluster.ClusterModeException;
+import com.autodeploy.cluster.Job;
+import com.autodeploy.cluster.JobCoordinator;
 import com.autodeploy.config.AutoDeployConfig;
+import com.autodeploy.core.AssetCache;
 import com.autodeploy.core.AutomationExecutor;
+import com.autodeploy.core.BrowserManager;
 import com.autodeploy.model.Task;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
@@ -24,12 +30,20 @@ import java.util.stream.Stream;
 public class DeployService {
 
     private final AutomationExecutor automationExecutor;
+    private final BrowserManager browserManager;
+    private final AssetCache assetCache;
     private final AutoDeployConfig config;
+    private final ObjectProvider<JobCoordinator> jobCoordinator;
     private final Yaml yaml;
 
-    public DeployService(AutomationExecutor automationExecutor, AutoDeployConfig config) {
+    public DeployService(AutomationExecutor automationExecutor, BrowserManager browserManager,
+                         AssetCache assetCache, AutoDeployConfig config,
+                         ObjectProvider<JobCoordinator> jobCoordinator) {
         this.automationExecutor = automationExecutor;
+        this.browserManager = browserManager;
+        this.assetCache = assetCache;
         this.config = config;
+        this.jobCoordinator = jobCoordinator;
 
         LoaderOptions loaderOptions = new LoaderOptions();
         this.yaml = new Yaml(new Constructor(Task.class, loaderOptions));
@@ -97,6 +111,7 @@ public class DeployService {
      * 执行指定任务（传入变量）
      */
     public AutomationExecutor.TaskResult executeTask(String taskName, Map<String, String> variables) {
+        requireLocalExecution();
         Task task = getTask(taskName);
         if (task == null) {
             return AutomationExecutor.TaskResult.failure(taskName, "任务不存在: " + taskName);
@@ -104,10 +119,24 @@ public class DeployService {
         return variables != null ? automationExecutor.execute(task, variables) : automationExecutor.execute(task);
     }
 
+    /**
+     * 执行指定任务（指定执行 ID 和整体时限，执行 ID 可用于取消）
+     */
+    public AutomationExecutor.TaskResult executeTask(String taskName, Map<String, String> variables,
+                                                     String executionId, Long deadline) {
+        requireLocalExecution();
+        Task task = getTask(taskName);
+        if (task == null) {
+            return AutomationExecutor.TaskResult.failure(taskName, "任务不存在: " + taskName);
+        }
+        return automationExecutor.execute(executionId, task, variables, deadline);
+    }
+
     /**
      * 执行任务对象
      */
     public AutomationExecutor.TaskResult executeTask(Task task) {
+        requireLocalExecution();
         return automationExecutor.execute(task);
     }
 
@@ -115,9 +144,99 @@ public class DeployService {
      * 执行任务对象（传入变量）
      */
     public AutomationExecutor.TaskResult executeTask(Task task, Map<String, String> variables) {
+        requireLocalExecution();
         return variables != null ? automationExecutor.execute(task, variables) : automationExecutor.execute(task);
     }
 
+    /**
+     * 执行任务对象（指定执行 ID 和整体时限，执行 ID 可用于取消）
+     */
+    public AutomationExecutor.TaskResult executeTask(Task task, Map<String, String> variables,
+                                                     String executionId, Long deadline) {
+        requireLocalExecution();
+        return automationExecutor.execute(executionId, task, variables, deadline);
+    }
+
+    /**
+     * 提交指定任务到队列（coordinator 模式），任务不存在时返回 null
+     */
+    public Job submitTask(String taskName, Map<String, String> variables) {
+        return submitTask(taskName, variables, null);
+    }
+
+    /**
+     * 提交指定任务到队列（coordinator 模式，指定整体时限），任务不存在时返回 null
+     */
+    public Job submitTask(String taskName, Map<String, String> variables, Long deadline) {
+        Task task = getTask(taskName);
+        if (task == null) {
+            return null;
+        }
+        // 时限随任务一起入队，Worker 从开始执行时计算
+        if (deadline != null) {
+            task.setDeadline(task.getDeadline() != null ? Math.min(task.getDeadline(), deadline) : deadline);
+        }
+        return submitTask(task, variables);
+    }
+
+    /**
+     * 提交任务对象到队列（coordinator 模式）
+     */
+    public Job submitTask(Task task, Map<String, String> variables) {
+        return requireCoordinator().submit(task, variables);
+    }
+
+    /**
+     * 查询队列中的执行记录（coordinator 模式）
+     */
+    public Job getExecution(String executionId) {
+        return requireCoordinator().getJob(executionId);
+    }
+
+    /**
+     * 取消执行：本进程内正在执行的任务立即中止，coordinator 模式下同时取消队列中的任务
+     * 返回 false 表示没有找到可取消的执行
+     */
+    public boolean cancelExecution(String executionId) {
+        boolean cancelled = automationExecutor.cancel(executionId);
+        JobCoordinator coordinator = jobCoordinator.getIfAvailable();
+        if (coordinator != null) {
+            cancelled |= coordinator.cancel(executionId);
+        }
+        return cancelled;
+    }
+
+    /**
+     * 浏览器运行统计
+     */
+    public Map<String, Object> getBrowserStats() {
+        return browserManager.getStats();
+    }
+
+    /**
+     * 静态资源缓存统计
+     */
+    public Map<String, Object> getAssetCacheStats() {
+        return assetCache.getStats();
+    }
+
+    /**
+     * coordinator 模式下 API 节点不启动浏览器，执行请求必须通过队列提交
+     */
+    private void requireLocalExecution() {
+        if (jobCoordinator.getIfAvailable() != null) {
+            throw new ClusterModeException("coordinator 模式下不在本节点执行任务，请使用 POST /api/deploy/executions 提交");
+        }
+    }
+
+    private JobCoordinator requireCoordinator() {
+        JobCoordinator coordinator = jobCoordinator.getIfAvailable();
+        if (coordinator == null) {
+            throw new ClusterModeException("当前不是 coordinator 模式: " + config.getCluster().getMode());
+        }
+        return coordinator;
+    }
+
     /**
      * 保存任务配置
      */
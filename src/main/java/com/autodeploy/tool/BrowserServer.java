@@ -0,0 +1,56 @@
+package com.autodeploy.tool;
+
+import com.microsoft.playwright.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 常驻浏览器启动工具
+ *
+ * 运行方法：
+ * mvn exec:java -D exec.mainClass=com.autodeploy.tool.BrowserServer -D
+ * exec.args="9222 headless"
+ *
+ * 这个工具会：
+ * 1. 启动一个开启远程调试端口的 Chromium
+ * 2. 一直运行，直到进程被终止（Ctrl+C）
+ *
+ * 服务端配置 autodeploy.browser.mode=cdp、autodeploy.browser.endpoint=http://127.0.0.1:9222 后，
+ * 应用重启不会关闭该浏览器。
+ */
+public class BrowserServer {
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9222;
+        boolean headless = args.length > 1 && "headless".equalsIgnoreCase(args[1]);
+
+        Playwright playwright = Playwright.create();
+        Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions()
+                .setHeadless(headless)
+                .setArgs(List.of(
+                        "--remote-debugging-address=127.0.0.1",
+                        "--remote-debugging-port=" + port,
+                        "--start-maximized")));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("🛑 关闭浏览器...");
+            browser.close();
+            playwright.close();
+        }));
+
+        System.out.println("=".repeat(60));
+        System.out.println("🌐 常驻浏览器已启动 (headless: " + headless + ")");
+        System.out.println("=".repeat(60));
+        System.out.println();
+        System.out.println("📋 服务端配置：");
+        System.out.println("   autodeploy.browser.mode: cdp");
+        System.out.println("   autodeploy.browser.endpoint: http://127.0.0.1:" + port);
+        System.out.println();
+        System.out.println("⏹  按 Ctrl+C 关闭浏览器");
+        System.out.println("=".repeat(60));
+
+        // 保持运行，浏览器随进程退出而关闭
+        new CountDownLatch(1).await();
+    }
+}
@@ -0,0 +1,152 @@
+package com.autodeploy.cluster;
+
+import com.autodeploy.config.AutoDeployConfig;
+import com.autodeploy.core.AutomationExecutor;
+import com.autodeploy.model.Task;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 两个 JobStore 指向同一个数据库文件，模拟同一主机上的多个进程
+ */
+class JobStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JobStore storeA;
+    private JobStore storeB;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storeA = newStore(60000);
+        storeB = newStore(60000);
+    }
+
+    @Test
+    void concurrentPollersLeaseEachJobOnce() throws Exception {
+        int jobCount = 20;
+        for (int i = 0; i < jobCount; i++) {
+            storeA.enqueue(task("job-" + i), Map.of("index", String.valueOf(i)));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<String>> leasedByA = pool.submit(drain(storeA, "worker-a"));
+            Future<List<String>> leasedByB = pool.submit(drain(storeB, "worker-b"));
+
+            List<String> all = new ArrayList<>(leasedByA.get());
+            all.addAll(leasedByB.get());
+            Set<String> unique = new HashSet<>(all);
+
+            assertThat(all).hasSize(jobCount);
+            assertThat(unique).hasSize(jobCount);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void expiredLeaseIsRequeuedThenFailsAtMaxAttempts() throws Exception {
+        JobStore shortLeaseA = newStore(50);
+        JobStore shortLeaseB = newStore(50);
+        Job job = shortLeaseA.enqueue(task("crashy"), null);
+
+        Job first = shortLeaseA.lease("worker-a");
+        assertThat(first.id()).isEqualTo(job.id());
+        assertThat(first.attempts()).isEqualTo(1);
+
+        // worker-a 崩溃，不再续约
+        Thread.sleep(100);
+        Job second = shortLeaseB.lease("worker-b");
+        assertThat(second).isNotNull();
+        assertThat(second.id()).isEqualTo(job.id());
+        assertThat(second.workerId()).isEqualTo("worker-b");
+        assertThat(second.attempts()).isEqualTo(2);
+
+        // 第二次也过期，达到 maxAttempts（2）后标记为失败而不是再次入队
+        Thread.sleep(100);
+        assertThat(shortLeaseA.reclaimExpired()).isZero();
+        Job failed = shortLeaseA.find(job.id());
+        assertThat(failed.status()).isEqualTo(Job.Status.FAILED);
+        assertThat(shortLeaseB.lease("worker-b")).isNull();
+    }
+
+    @Test
+    void completeFailsOnceLeaseIsLost() throws Exception {
+        JobStore shortLeaseA = newStore(50);
+        JobStore shortLeaseB = newStore(50);
+        Job job = shortLeaseA.enqueue(task("slow"), null);
+
+        shortLeaseA.lease("worker-a");
+        Thread.sleep(100);
+        shortLeaseB.lease("worker-b");
+
+        AutomationExecutor.TaskResult result = AutomationExecutor.TaskResult.success("slow", 10);
+        assertThat(shortLeaseA.heartbeat(job.id(), "worker-a")).isFalse();
+        assertThat(shortLeaseA.complete(job.id(), "worker-a", result)).isFalse();
+        assertThat(shortLeaseA.find(job.id()).status()).isEqualTo(Job.Status.RUNNING);
+
+        assertThat(shortLeaseB.complete(job.id(), "worker-b", result)).isTrue();
+        Job done = shortLeaseB.find(job.id());
+        assertThat(done.status()).isEqualTo(Job.Status.SUCCEEDED);
+        assertThat(done.duration()).isEqualTo(10L);
+    }
+
+    @Test
+    void cancelIsVisibleToTheLeasingWorker() {
+        Job job = storeA.enqueue(task("cancel-me"), null);
+        storeB.lease("worker-b");
+        assertThat(storeB.isCancelled(job.id())).isFalse();
+
+        assertThat(storeA.cancel(job.id())).isTrue();
+
+        assertThat(storeB.isCancelled(job.id())).isTrue();
+        assertThat(storeB.heartbeat(job.id(), "worker-b")).isFalse();
+        assertThat(storeA.cancel(job.id())).isFalse();
+    }
+
+    private Callable<List<String>> drain(JobStore store, String workerId) {
+        return () -> {
+            List<String> leased = new ArrayList<>();
+            Job job;
+            while ((job = store.lease(workerId)) != null) {
+                leased.add(job.id());
+            }
+            return leased;
+        };
+    }
+
+    private JobStore newStore(long leaseMs) throws Exception {
+        AutoDeployConfig config = new AutoDeployConfig();
+        config.getCluster().setDbPath(tempDir.resolve("jobs.db").toString());
+        config.getCluster().setLeaseMs(leaseMs);
+        config.getCluster().setMaxAttempts(2);
+        JobStore store = new JobStore(config, new ObjectMapper());
+        store.init();
+        return store;
+    }
+
+    private Task task(String name) {
+        Task task = new Task();
+        task.setName(name);
+        task.setUrl("https://example.com");
+        task.setSteps(List.of());
+        return task;
+    }
+}
@@ -0,0 +1,155 @@
+package com.autodeploy.core;
+
+import com.autodeploy.config.AutoDeployConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssetCacheTest {
+
+    private static final int ENTRY_SIZE = 300 * 1024;
+    private static final long NOW = 1_700_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private final List<AssetCache> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AssetCache cache : created) {
+            cache.destroy();
+        }
+    }
+
+    @Test
+    void cacheableWithFreshnessOrValidators() {
+        assertThat(AssetCache.isCacheable(Map.of("cache-control", "public, max-age=31536000"))).isTrue();
+        assertThat(AssetCache.isCacheable(Map.of("etag", "\"abc\""))).isTrue();
+        assertThat(AssetCache.isCacheable(Map.of("last-modified", "Wed, 21 Oct 2015 07:28:00 GMT"))).isTrue();
+        assertThat(AssetCache.isCacheable(Map.of("expires", "Wed, 21 Oct 2015 07:28:00 GMT"))).isTrue();
+    }
+
+    @Test
+    void notCacheableWhenPrivateOrPerUser() {
+        assertThat(AssetCache.isCacheable(Map.of())).isFalse();
+        assertThat(AssetCache.isCacheable(Map.of("cache-control", "no-store", "etag", "\"abc\""))).isFalse();
+        assertThat(AssetCache.isCacheable(Map.of("cache-control", "private, max-age=60"))).isFalse();
+        assertThat(AssetCache.isCacheable(Map.of("vary", "*", "etag", "\"abc\""))).isFalse();
+        assertThat(AssetCache.isCacheable(Map.of("cache-control", "max-age=60", "set-cookie", "session=1"))).isFalse();
+    }
+
+    @Test
+    void expiresAtFromMaxAge() {
+        assertThat(AssetCache.expiresAt(Map.of("cache-control", "public, max-age=60"), NOW)).isEqualTo(NOW + 60_000);
+        // s-maxage 和 max-age 都视为新鲜期
+        assertThat(AssetCache.expiresAt(Map.of("cache-control", "s-maxage=10"), NOW)).isEqualTo(NOW + 10_000);
+    }
+
+    @Test
+    void expiresAtFromExpiresHeader() {
+        long expected = 1_445_412_480_000L;
+        assertThat(AssetCache.expiresAt(Map.of("expires", "Wed, 21 Oct 2015 07:28:00 GMT"), NOW)).isEqualTo(expected);
+    }
+
+    @Test
+    void expiresImmediatelyWhenUnknownOrNoCache() {
+        assertThat(AssetCache.expiresAt(Map.of(), NOW)).isEqualTo(NOW);
+        assertThat(AssetCache.expiresAt(Map.of("cache-control", "no-cache, max-age=60"), NOW)).isEqualTo(NOW);
+        assertThat(AssetCache.expiresAt(Map.of("expires", "0"), NOW)).isEqualTo(NOW);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverCapacity() throws Exception {
+        AssetCache cache = newCache();
+        cache.put("a", entry("a"), new byte[ENTRY_SIZE]);
+        cache.put("b", entry("b"), new byte[ENTRY_SIZE]);
+        cache.put("c", entry("c"), new byte[ENTRY_SIZE]);
+
+        // 访问 a 后，b 成为最久未使用的缓存项
+        assertThat(cache.lookup("a")).isNotNull();
+        cache.put("d", entry("d"), new byte[ENTRY_SIZE]);
+
+        assertThat(cache.lookup("b")).isNull();
+        assertThat(Files.exists(tempDir.resolve("slot-0/b.body"))).isFalse();
+        assertThat(Files.exists(tempDir.resolve("slot-0/b.json"))).isFalse();
+        assertThat(cache.lookup("a")).isNotNull();
+        assertThat(cache.lookup("d")).isNotNull();
+
+        Map<String, Object> stats = cache.getStats();
+        assertThat(stats.get("entries")).isEqualTo(3);
+        assertThat(stats.get("totalBytes")).isEqualTo(3L * ENTRY_SIZE);
+        assertThat(stats.get("evictions")).isEqualTo(1L);
+    }
+
+    @Test
+    void replacingAnEntryDoesNotDoubleCountBytes() throws Exception {
+        AssetCache cache = newCache();
+        cache.put("a", entry("a"), new byte[ENTRY_SIZE]);
+        cache.put("a", new AssetCache.Entry("a", 200, Map.of(), 1024, NOW, null, null), new byte[1024]);
+
+        assertThat(cache.getStats().get("totalBytes")).isEqualTo(1024L);
+    }
+
+    @Test
+    void reloadRestoresIndexAndSize() throws Exception {
+        AssetCache cache = newCache();
+        cache.put("a", entry("a"), new byte[ENTRY_SIZE]);
+        cache.put("b", entry("b"), new byte[ENTRY_SIZE]);
+        cache.destroy();
+
+        // 释放后的槽位由新进程重新占用
+        AssetCache reloaded = newCache();
+
+        assertThat(reloaded.getStats().get("entries")).isEqualTo(2);
+        assertThat(reloaded.getStats().get("totalBytes")).isEqualTo(2L * ENTRY_SIZE);
+        assertThat(reloaded.lookup("a").url()).isEqualTo("https://example.com/a");
+        try (var files = Files.list(tempDir.resolve("slot-0"))) {
+            assertThat(files.filter(p -> p.toString().endsWith(".tmp"))).isEmpty();
+        }
+    }
+
+    @Test
+    void processesSharingTheDirectoryUseSeparateSlots() throws Exception {
+        AssetCache first = newCache();
+        AssetCache second = newCache();
+        first.put("a", entry("a"), new byte[ENTRY_SIZE]);
+        first.put("b", entry("b"), new byte[ENTRY_SIZE]);
+        first.put("c", entry("c"), new byte[ENTRY_SIZE]);
+        second.put("d", entry("d"), new byte[ENTRY_SIZE]);
+        second.put("e", entry("e"), new byte[ENTRY_SIZE]);
+        second.put("f", entry("f"), new byte[ENTRY_SIZE]);
+
+        // 各自只按自己的容量淘汰，不会删除对方已索引的文件
+        assertThat(first.getStats().get("evictions")).isEqualTo(0L);
+        assertThat(second.getStats().get("evictions")).isEqualTo(0L);
+        assertThat(Files.exists(tempDir.resolve("slot-0/a.body"))).isTrue();
+        assertThat(Files.exists(tempDir.resolve("slot-1/d.body"))).isTrue();
+        assertThat(first.lookup("d")).isNull();
+    }
+
+    private AssetCache newCache() throws Exception {
+        AutoDeployConfig config = new AutoDeployConfig();
+        config.getAssetCache().setEnabled(true);
+        config.getAssetCache().setDirectory(tempDir.toString());
+        config.getAssetCache().setMaxSizeMb(1);
+        AssetCache cache = new AssetCache(config, new ObjectMapper());
+        cache.init();
+        created.add(cache);
+        return cache;
+    }
+
+    private AssetCache.Entry entry(String name) {
+        return new AssetCache.Entry("https://example.com/" + name, 200,
+                Map.of("content-type", "text/javascript"), ENTRY_SIZE, NOW, "\"" + name + "\"", null);
+    }
+}
@@ -0,0 +1,113 @@
+package com.autodeploy.core;
+
+import com.autodeploy.config.AutoDeployConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelectorStatsTest {
+
+    private static final List<String> CANDIDATES = List.of("#a", "#b", "#c");
+
+    @TempDir
+    Path tempDir;
+
+    private final List<SelectorStats> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(SelectorStats::destroy);
+    }
+
+    @Test
+    void unseenCandidatesKeepDeclaredOrder() {
+        SelectorStats stats = newStats();
+
+        assertThat(stats.order("task | #a | #b | #c", CANDIDATES)).containsExactly("#a", "#b", "#c");
+    }
+
+    @Test
+    void winnerIsPromotedAndOthersKeepTheirOrder() {
+        SelectorStats stats = newStats();
+        String key = SelectorStats.stepKey("task", CANDIDATES);
+
+        stats.recordSuccess(key, "#c");
+
+        assertThat(stats.order(key, CANDIDATES)).containsExactly("#c", "#a", "#b");
+    }
+
+    @Test
+    void mostRecentWinnerComesFirst() {
+        SelectorStats stats = newStats();
+        String key = SelectorStats.stepKey("task", CANDIDATES);
+
+        stats.record(key, "#b", 1000);
+        stats.record(key, "#b", 2000);
+        stats.record(key, "#c", 3000);
+
+        assertThat(stats.order(key, CANDIDATES)).containsExactly("#c", "#b", "#a");
+    }
+
+    @Test
+    void moreWinsBreakTiesOnTheSameTimestamp() {
+        SelectorStats stats = newStats();
+        String key = SelectorStats.stepKey("task", CANDIDATES);
+
+        stats.record(key, "#b", 1000);
+        stats.record(key, "#c", 1000);
+        stats.record(key, "#c", 1000);
+
+        assertThat(stats.order(key, CANDIDATES)).containsExactly("#c", "#b", "#a");
+    }
+
+    @Test
+    void recordingDoesNotWriteUntilFlushed() {
+        SelectorStats stats = newStats();
+        String key = SelectorStats.stepKey("task", CANDIDATES);
+
+        stats.recordSuccess(key, "#c");
+        assertThat(tempDir.resolve("selector-stats.json")).doesNotExist();
+
+        stats.flush();
+        assertThat(newStats().order(key, CANDIDATES)).containsExactly("#c", "#a", "#b");
+    }
+
+    @Test
+    void stepKeyIgnoresCandidateOrder() {
+        assertThat(SelectorStats.stepKey("task", List.of("#b", "#a")))
+                .isEqualTo(SelectorStats.stepKey("task", List.of("#a", "#b")));
+    }
+
+    @Test
+    void processesSharingTheFileDoNotOverwriteEachOther() {
+        SelectorStats first = newStats();
+        SelectorStats second = newStats();
+        String keyA = SelectorStats.stepKey("task-a", CANDIDATES);
+        String keyB = SelectorStats.stepKey("task-b", CANDIDATES);
+
+        first.recordSuccess(keyA, "#b");
+        second.recordSuccess(keyB, "#c");
+        first.flush();
+        second.flush();
+
+        SelectorStats reloaded = newStats();
+        assertThat(reloaded.order(keyA, CANDIDATES)).containsExactly("#b", "#a", "#c");
+        assertThat(reloaded.order(keyB, CANDIDATES)).containsExactly("#c", "#a", "#b");
+    }
+
+    private SelectorStats newStats() {
+        AutoDeployConfig config = new AutoDeployConfig();
+        config.getSelectors().setStatsPath(tempDir.resolve("selector-stats.json").toString());
+        SelectorStats stats = new SelectorStats(config, new ObjectMapper());
+        stats.init();
+        created.add(stats);
+        return stats;
+    }
+}